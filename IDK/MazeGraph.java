@@ -1,12 +1,12 @@
 import java.awt.Point;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 import com.orbischallenge.pacman.api.common.MazeItem;
 import com.orbischallenge.pacman.api.common.MoveDir;
@@ -14,38 +14,189 @@ import com.orbischallenge.pacman.api.java.JUtil;
 import com.orbischallenge.pacman.api.java.Maze;
 
 /**
- * A graph representation of the maze. Important: the methods are not optimized
- * for best performance. If your AI is likely to do heavy calculation, consider
- * improving some of the methods below. You are welcome to supply your own
- * methods or classes.
+ * A graph representation of the static topology of a maze. Instances are
+ * immutable and interned per layout (see {@link #forMaze(Maze)}), so any number
+ * of games and threads can share one. Anything that depends on the state of a
+ * game in progress, such as which dots are left, lives in {@link MazeSearch}.
+ *
+ * The points held and returned by this class are shared between all users of
+ * the graph and must be treated as read-only.
  */
 public class MazeGraph {
 
-	private Maze maze;
+	private static final ConcurrentMap<String, MazeGraph> graphs = new ConcurrentHashMap<String, MazeGraph>();
 
-	private Map<Point, Map<Point, List<Point>>> graph;
-	
-	public List<Point> warpPoints;
+	private final int width;
 
-	public MazeGraph(Maze maze) {
-		this.maze = maze;
-		makeGraph();
+	private final int height;
+
+	private final boolean[] accessible;
+
+	private final boolean[] intersection;
+
+	private final boolean[] corner;
+
+	private final List<List<Point>> neighbours;
+
+	private final List<List<Point>> searchNeighbours;
+
+	private final Map<Point, Map<Point, List<Point>>> graph;
+
+	private final List<Point> warpPoints;
+
+	/**
+	 * Get the graph for the layout of the given maze, building it on first use.
+	 * Mazes with the same layout share the same graph.
+	 *
+	 * @param maze
+	 * @return MazeGraph
+	 */
+	public static MazeGraph forMaze(Maze maze) {
+		String key = layoutKey(maze);
+		MazeGraph graph = graphs.get(key);
+		if (graph == null) {
+			MazeGraph built = new MazeGraph(maze);
+			graph = graphs.putIfAbsent(key, built);
+			if (graph == null) {
+				graph = built;
+			}
+		}
+		return graph;
+	}
+
+	/**
+	 * Describe the parts of a maze the graph is built from: its size, which
+	 * tiles are accessible and where the warp points are.
+	 *
+	 * @param maze
+	 * @return String
+	 */
+	private static String layoutKey(Maze maze) {
+		StringBuilder key = new StringBuilder(maze.getWidth()
+				* maze.getHeight() + 8);
+		key.append(maze.getWidth()).append('x').append(maze.getHeight())
+				.append(':');
+		for (int j = 0; j < maze.getHeight(); j++) {
+			for (int i = 0; i < maze.getWidth(); i++) {
+				Point tile = new Point(i, j);
+				if (maze.getTileItem(tile).equals(MazeItem.TELEPORT)) {
+					key.append('T');
+				} else if (maze.isAccessible(tile)) {
+					key.append('1');
+				} else {
+					key.append('0');
+				}
+			}
+		}
+		return key.toString();
+	}
+
+	private MazeGraph(Maze maze) {
+		this.width = maze.getWidth();
+		this.height = maze.getHeight();
+		int size = width * height;
+		this.accessible = new boolean[size];
+		this.intersection = new boolean[size];
+		this.corner = new boolean[size];
+		List<Point> warps = new ArrayList<Point>();
+		for (int j = 0; j < height; j++) {
+			for (int i = 0; i < width; i++) {
+				Point tile = new Point(i, j);
+				int index = index(tile);
+				accessible[index] = maze.isAccessible(tile);
+				intersection[index] = maze.isIntersection(tile);
+				corner[index] = maze.isCorner(tile);
+				if (maze.getTileItem(tile).equals(MazeItem.TELEPORT)) {
+					warps.add(tile);
+				}
+			}
+		}
+		if (warps.size() != 2) {
+			throw new RuntimeException("Found more than two warp points");
+		}
+		this.warpPoints = Collections.unmodifiableList(warps);
+		this.neighbours = new ArrayList<List<Point>>(size);
+		this.searchNeighbours = new ArrayList<List<Point>>(size);
+		for (int j = 0; j < height; j++) {
+			for (int i = 0; i < width; i++) {
+				Point tile = new Point(i, j);
+				List<Point> points = new ArrayList<Point>(
+						maze.getAccessibleNeighbours(tile));
+				neighbours.add(Collections.unmodifiableList(points));
+				// Searches can also jump across to the other warp point
+				int warp = warpPoints.indexOf(tile);
+				if (warp >= 0) {
+					points = new ArrayList<Point>(points);
+					points.add(warpPoints.get(1 - warp));
+				}
+				searchNeighbours.add(Collections.unmodifiableList(points));
+			}
+		}
+		this.graph = makeGraph(maze);
 	}
 
 	public Map<Point, Map<Point, List<Point>>> getGraph() {
 		return graph;
 	}
 
+	public List<Point> getWarpPoints() {
+		return warpPoints;
+	}
+
+	public boolean isWarpPoint(Point tile) {
+		return warpPoints.contains(tile);
+	}
+
+	public boolean isAccessible(Point tile) {
+		return inBounds(tile) && accessible[index(tile)];
+	}
+
+	public boolean isIntersection(Point tile) {
+		return inBounds(tile) && intersection[index(tile)];
+	}
+
+	public boolean isCorner(Point tile) {
+		return inBounds(tile) && corner[index(tile)];
+	}
+
+	public List<Point> getAccessibleNeighbours(Point tile) {
+		if (!inBounds(tile)) {
+			return Collections.emptyList();
+		}
+		return neighbours.get(index(tile));
+	}
+
+	/**
+	 * Get the tiles a search can move to from the given tile, which are its
+	 * accessible neighbours plus the other warp point if it is a warp point.
+	 *
+	 * @param tile
+	 * @return List<Point>
+	 */
+	public List<Point> getAccessiblePoints(Point tile) {
+		if (!inBounds(tile)) {
+			return Collections.emptyList();
+		}
+		return searchNeighbours.get(index(tile));
+	}
+
+	private boolean inBounds(Point tile) {
+		return tile.x >= 0 && tile.x < width && tile.y >= 0 && tile.y < height;
+	}
+
+	private int index(Point tile) {
+		return tile.y * width + tile.x;
+	}
+
 	/**
 	 * Construct a graph representation of the maze.
-	 * 
+	 *
 	 * @return
 	 */
-	private void makeGraph() {
-		this.graph = new HashMap<Point, Map<Point, List<Point>>>();
-		warpPoints = new ArrayList<Point>();
-		for (int j = 0; j < maze.getHeight(); j++) {
-			for (int i = 0; i < maze.getWidth(); i++) {
+	private Map<Point, Map<Point, List<Point>>> makeGraph(Maze maze) {
+		Map<Point, Map<Point, List<Point>>> graph = new HashMap<Point, Map<Point, List<Point>>>();
+		for (int j = 0; j < height; j++) {
+			for (int i = 0; i < width; i++) {
 				Point node = new Point(i, j);
 				// It's a node if the tile is an intersection or a dead end
 				if (maze.isIntersection(node) || maze.isDeadEnd(node)) {
@@ -57,25 +208,21 @@ public class MazeGraph {
 							// this one
 							Point endNode = path.get(path.size() - 1);
 							// Put in the end node and the path leading to it
-							connected.put(endNode, path);
+							connected.put(endNode,
+									Collections.unmodifiableList(path));
 						}
 					}
 					// Put in this node and its connected node->path maps
-					graph.put(node, connected);
-				}
-				if(maze.getTileItem(node).equals(MazeItem.TELEPORT)){
-					warpPoints.add(node);
+					graph.put(node, Collections.unmodifiableMap(connected));
 				}
 			}
 		}
-		if(warpPoints.size()!=2){
-			throw new RuntimeException("Found more than two warp points");
-		}
+		return Collections.unmodifiableMap(graph);
 	}
 
 	/**
 	 * Get path to the next intersection/dead end, which is a node
-	 * 
+	 *
 	 * @param tile
 	 * @param dir
 	 * @return List<Point> representing the path as a list of connected tiles
@@ -87,13 +234,13 @@ public class MazeGraph {
 		Point dirVector = JUtil.getVector(dir);
 		Point currTile;
 		Point nextTile = JUtil.vectorAdd(tile, dirVector);
-		while (maze.isAccessible(nextTile)) {
+		while (isAccessible(nextTile)) {
 			currTile = nextTile; // move to the next tile
 			path.add(currTile); // add the curr tile to path
-			if (maze.isIntersection(currTile)) {
+			if (isIntersection(currTile)) {
 				return path;
 			}
-			if (maze.isCorner(currTile)) {
+			if (isCorner(currTile)) {
 				// Turn corner, get the updated direction
 				dirVector = turnCorner(currTile, dirVector);
 			}
@@ -105,7 +252,7 @@ public class MazeGraph {
 
 	/**
 	 * Turn direction at a corner tile
-	 * 
+	 *
 	 * @param cornerTile
 	 *            - This given tile must be a corner tile
 	 * @param currDirVector
@@ -114,7 +261,7 @@ public class MazeGraph {
 	private Point turnCorner(Point cornerTile, Point currDirVector) {
 		for (Point perVector : JUtil.getPerpendiculars(currDirVector)) {
 			Point newTile = JUtil.vectorAdd(cornerTile, perVector);
-			if (maze.isAccessible(newTile)) {
+			if (isAccessible(newTile)) {
 				return perVector;
 			}
 		}
@@ -124,7 +271,7 @@ public class MazeGraph {
 	/**
 	 * Find all paths from a given starting tile to a goal tile, with maximum
 	 * number of nodes in each path. A path is a list of connected tiles.
-	 * 
+	 *
 	 * @param start
 	 *            - the starting tile, doesn't have to be a node
 	 * @param goal
@@ -157,14 +304,14 @@ public class MazeGraph {
 		}
 		return paths;
 	}
-	
+
 	public int getNumberOfIntersectionsBeforeGhost(Point start, MoveDir dir, List<Point> ghostPoints, int insideLength) {
 		Point point = start;
 		int numOfIntersections = 0;
-		while(!maze.isCorner(point)){
+		while(!isCorner(point)){
 			point = JUtil.vectorAdd(point, JUtil.getVector(dir));
-			if(maze.isAccessible(point) && !ghostPoints.contains(point) && noGhostInSides(point, ghostPoints, insideLength)){
-				if(maze.isIntersection(point) || maze.isCorner(point)){
+			if(isAccessible(point) && !ghostPoints.contains(point) && noGhostInSides(point, ghostPoints, insideLength)){
+				if(isIntersection(point) || isCorner(point)){
 					numOfIntersections++;
 				}
 			}else{
@@ -173,19 +320,19 @@ public class MazeGraph {
 		}
 		return numOfIntersections;
 	}
-	
-	
+
+
 	private boolean noGhostInSides(Point point, List<Point> ghostPoints, int insideLength) {
 		boolean ghostsNotThere = true;
 		int numberOfIntersections = 0;
-		for (Point point2 : maze.getAccessibleNeighbours(point)) {
+		for (Point point2 : getAccessibleNeighbours(point)) {
 			MoveDir dir = JUtil.getMoveDir(JUtil.vectorSub(point2, point));
-			int i = 0;			
+			int i = 0;
 			Point newPoint = JUtil.vectorAdd(point, JUtil.getVector(dir));
-			while(!maze.isCorner(newPoint) && i <insideLength){
-				if(maze.isAccessible(newPoint) && ghostPoints.contains(newPoint)){
+			while(!isCorner(newPoint) && i <insideLength){
+				if(isAccessible(newPoint) && ghostPoints.contains(newPoint)){
 					ghostsNotThere = false;
-				}else if(maze.isAccessible(newPoint) && (maze.isIntersection(newPoint))){
+				}else if(isAccessible(newPoint) && (isIntersection(newPoint))){
 					numberOfIntersections++;
 				}
 				i++;
@@ -197,17 +344,9 @@ public class MazeGraph {
 		return ghostsNotThere;
 	}
 
-	public List<List<Point>> getPathsBelow(Point start, Point goal, int maxLength) {
-		Queue<List<Point>> queue = new LinkedList<List<Point>>();
-		List<Point> list = new ArrayList<Point>();
-		list.add(start);
-		queue.add(list);
-		return BFSForEnd(goal, queue, maxLength);
-	}
-
 	/**
 	 * Recursive helper method for graph search starting from a node
-	 * 
+	 *
 	 * @param paths
 	 *            - accumulating all paths to the goal tile
 	 * @param currPath
@@ -255,7 +394,7 @@ public class MazeGraph {
 	/**
 	 * Get a list of MoveDir objects which Pacman can use to navigate itself
 	 * through a path.
-	 * 
+	 *
 	 * @param start
 	 *            - the starting tile
 	 * @param path
@@ -273,93 +412,5 @@ public class MazeGraph {
 		}
 		return MoveDirList;
 	}
-	
-	
-
-	public List<Point> getShortestPath(Point start, Point dest,
-			int thresholdTiles) {
-		List<List<Point>> paths = getPathsBelow(start, dest, thresholdTiles);
-		int minSize = Integer.MAX_VALUE;
-		List<Point> shortestPath = new ArrayList<Point>();
-		for (List<Point> path : paths) {
-			if (path.size() < minSize) {
-				minSize = path.size();
-				shortestPath = path;
-			}
-		}
-		return shortestPath;
-	}
-
-	public List<Point> getClosestDot(Point p, List<MoveDir> potentialDirs, Set<Point> ignoreList, int maxLength) {
-		Queue<List<Point>> queue = new LinkedList<List<Point>>();
-		for (MoveDir dir : potentialDirs) {
-			Point point = JUtil.vectorAdd(p, JUtil.getVector(dir));
-			List<Point> list = new ArrayList<Point>();
-			list.add(point);
-			queue.add(list);
-		}
-		return BFSForMazeItem(Arrays.asList(new MazeItem[] {MazeItem.DOT, MazeItem.POWER_DOT}), queue, ignoreList, maxLength);
-	}
-	
-	
-
-	public List<Point> BFSForMazeItem(List<MazeItem> items, Queue<List<Point>> unvistedPaths,  Set<Point> ignoreList, int maxLength){
-		while(unvistedPaths.peek()!=null){
-			List<Point> path = unvistedPaths.poll();			
-			Point point = path.get(path.size() - 1);
-			if(items.contains(maze.getTileItem(point))) {
-				return path;
-			}			
-			List<Point> points = getAccessiblePoints(point, path);
-			for (Point poi : points) {
-				if(!path.contains(poi) && !ignoreList.contains(poi)){
-					List<Point> newPath = new ArrayList<Point>();
-					newPath.addAll(path);
-					newPath.add(poi);
-					if(newPath.size()<=maxLength){
-						unvistedPaths.add(newPath);
-					}
-				}
-			}
-		}
-		return new ArrayList<Point>();		
-	}
-
-	private List<Point> getAccessiblePoints(Point point, List<Point> path) {
-		List<Point> points = maze.getAccessibleNeighbours(point);
-		if(warpPoints.contains(point)){
-			int i = warpPoints.indexOf(point);
-			if(i==1){
-				points.add(warpPoints.get(0));
-			}else{
-				points.add(warpPoints.get(1));
-			}
-		}
-		return points;
-	}
-	
-	
-	public List<List<Point>> BFSForEnd(Point end, Queue<List<Point>> unvistedPaths, int maxLength){
-		List<List<Point>> paths = new ArrayList<List<Point>>(); 
-		while(unvistedPaths.peek()!=null){
-			List<Point> path = unvistedPaths.poll();			
-			Point point = path.get(path.size() - 1);
-			if(point.equals(end)){
-				paths.add(path);
-			}
-			List<Point> points = getAccessiblePoints(point, path);
-			for (Point poi : points) {
-				if(!path.contains(poi)){
-					List<Point> newPath = new ArrayList<Point>();
-					newPath.addAll(path);
-					newPath.add(poi);
-					if(newPath.size()<=maxLength){
-						unvistedPaths.add(newPath);
-					}
-				}
-			}
-		}
-		return paths;		
-	}
 
 }
@@ -0,0 +1,127 @@
+import java.awt.Point;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+
+import com.orbischallenge.pacman.api.common.MazeItem;
+import com.orbischallenge.pacman.api.common.MoveDir;
+import com.orbischallenge.pacman.api.java.JUtil;
+import com.orbischallenge.pacman.api.java.Maze;
+
+/**
+ * Searches over a shared {@link MazeGraph} for a single game. It holds the
+ * state of the game in progress and the scratch space reused between
+ * searches, so it is cheap to create but must only be used by one thread at a
+ * time.
+ */
+public class MazeSearch {
+
+	private static final List<MazeItem> dotItems = Arrays
+			.asList(new MazeItem[] { MazeItem.DOT, MazeItem.POWER_DOT });
+
+	private final MazeGraph graph;
+
+	private final Queue<List<Point>> unvisitedPaths = new ArrayDeque<List<Point>>();
+
+	private Maze maze;
+
+	public MazeSearch(MazeGraph graph, Maze maze) {
+		this.graph = graph;
+		this.maze = maze;
+	}
+
+	public MazeGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Point the search at the latest state of the game, which is where dots
+	 * are looked up from.
+	 *
+	 * @param maze
+	 */
+	public void update(Maze maze) {
+		this.maze = maze;
+	}
+
+	public List<List<Point>> getPathsBelow(Point start, Point goal, int maxLength) {
+		unvisitedPaths.clear();
+		List<Point> list = new ArrayList<Point>();
+		list.add(start);
+		unvisitedPaths.add(list);
+		return BFSForEnd(goal, maxLength);
+	}
+
+	public List<Point> getShortestPath(Point start, Point dest,
+			int thresholdTiles) {
+		List<List<Point>> paths = getPathsBelow(start, dest, thresholdTiles);
+		int minSize = Integer.MAX_VALUE;
+		List<Point> shortestPath = new ArrayList<Point>();
+		for (List<Point> path : paths) {
+			if (path.size() < minSize) {
+				minSize = path.size();
+				shortestPath = path;
+			}
+		}
+		return shortestPath;
+	}
+
+	public List<Point> getClosestDot(Point p, List<MoveDir> potentialDirs, Set<Point> ignoreList, int maxLength) {
+		unvisitedPaths.clear();
+		for (MoveDir dir : potentialDirs) {
+			Point point = JUtil.vectorAdd(p, JUtil.getVector(dir));
+			List<Point> list = new ArrayList<Point>();
+			list.add(point);
+			unvisitedPaths.add(list);
+		}
+		return BFSForMazeItem(dotItems, ignoreList, maxLength);
+	}
+
+	private List<Point> BFSForMazeItem(List<MazeItem> items, Set<Point> ignoreList, int maxLength){
+		while(unvisitedPaths.peek()!=null){
+			List<Point> path = unvisitedPaths.poll();
+			Point point = path.get(path.size() - 1);
+			if(items.contains(maze.getTileItem(point))) {
+				unvisitedPaths.clear();
+				return path;
+			}
+			for (Point poi : graph.getAccessiblePoints(point)) {
+				if(!path.contains(poi) && !ignoreList.contains(poi)){
+					List<Point> newPath = new ArrayList<Point>(path.size() + 1);
+					newPath.addAll(path);
+					newPath.add(poi);
+					if(newPath.size()<=maxLength){
+						unvisitedPaths.add(newPath);
+					}
+				}
+			}
+		}
+		return new ArrayList<Point>();
+	}
+
+	private List<List<Point>> BFSForEnd(Point end, int maxLength){
+		List<List<Point>> paths = new ArrayList<List<Point>>();
+		while(unvisitedPaths.peek()!=null){
+			List<Point> path = unvisitedPaths.poll();
+			Point point = path.get(path.size() - 1);
+			if(point.equals(end)){
+				paths.add(path);
+			}
+			for (Point poi : graph.getAccessiblePoints(point)) {
+				if(!path.contains(poi)){
+					List<Point> newPath = new ArrayList<Point>(path.size() + 1);
+					newPath.addAll(path);
+					newPath.add(poi);
+					if(newPath.size()<=maxLength){
+						unvisitedPaths.add(newPath);
+					}
+				}
+			}
+		}
+		return paths;
+	}
+
+}
@@ -36,7 +36,7 @@ public class PacPlayer implements Player {
 
 	private int lives = 3;
 
-	private MazeGraph graph;
+	private MazeSearch search;
 
 	enum Modes {
 		EXPLORING, HUNTING, FLEEING
@@ -72,6 +72,7 @@ public class PacPlayer implements Player {
 	public MoveDir calculateDirection(Maze maze, Ghost[] ghosts, Pac pac,
 			int score) {
 
+		search.update(maze);
 		Modes mode = Modes.EXPLORING;
 		List<Ghost> closeActiveGhosts = new ArrayList<Ghost>();
 		List<Ghost> closeBlinkingGhosts = new ArrayList<Ghost>();
@@ -113,7 +114,7 @@ public class PacPlayer implements Player {
 
 			Set<Point> dangerousPoints = new HashSet<Point>();
 			for (Ghost ghost : activeGhosts) {
-				List<Point> path = graph.getShortestPath(ghost.getTile(),
+				List<Point> path = search.getShortestPath(ghost.getTile(),
 						pac.getTile(), THRESHOLD_TILES);
 				if (!path.isEmpty()) {
 					dangerousPoints.addAll(path);
@@ -139,7 +140,7 @@ public class PacPlayer implements Player {
 					Point dot = path.get(path.size() - 1);
 					ignoreList.add(dot);
 					for (Ghost ghost : activeGhosts) {
-						List<Point> pathForGhost = graph.getShortestPath(
+						List<Point> pathForGhost = search.getShortestPath(
 								ghost.getTile(), dot, THRESHOLD_TILES);
 						ignoreList.addAll(pathForGhost);
 						if (!pathForGhost.isEmpty()) {
@@ -170,7 +171,7 @@ public class PacPlayer implements Player {
 			List<Point> closestGhost = new ArrayList<Point>();
 			int minSize = Integer.MAX_VALUE;
 			for (Ghost ghost : blinkingGhosts) {
-				List<Point> path = graph.getShortestPath(pac.getTile(),
+				List<Point> path = search.getShortestPath(pac.getTile(),
 						ghost.getTile(), ghost.framesTillRecover()
 								/ CHASE_CONSTANT);
 				if (!path.isEmpty() && path.size() < minSize) {
@@ -191,7 +192,7 @@ public class PacPlayer implements Player {
 		default:
 			throw new IllegalStateException();
 		}
-		if (graph.warpPoints.contains(pacTile)) {
+		if (search.getGraph().isWarpPoint(pacTile)) {
 			direction = pac.getDir();
 		}
 		return direction;
@@ -205,7 +206,7 @@ public class PacPlayer implements Player {
 		int mostIntersections = 0;
 		MoveDir bestDir = potentialDirs.get(0);
 		for (MoveDir moveDir : potentialDirs) {
-			int numberOfIntersections = graph.getNumberOfIntersectionsBeforeGhost(pacTile, moveDir, ghostPoints, HOW_DEEP_IN_INTERSECTION);
+			int numberOfIntersections = search.getGraph().getNumberOfIntersectionsBeforeGhost(pacTile, moveDir, ghostPoints, HOW_DEEP_IN_INTERSECTION);
 			if(numberOfIntersections > mostIntersections){
 				mostIntersections = numberOfIntersections;
 				bestDir = moveDir;
@@ -235,12 +236,12 @@ public class PacPlayer implements Player {
 
 	private List<Point> closestDotPath(Point tile, List<MoveDir> potentialDirs,
 			Set<Point> ignoreList, int maxLength) {
-		return graph.getClosestDot(tile, potentialDirs, ignoreList, maxLength);
+		return search.getClosestDot(tile, potentialDirs, ignoreList, maxLength);
 	}
 
 	private MoveDir dirToClosestDot(Point point, List<MoveDir> potentialDirs,
 			Set<Point> ignoreList) {
-		List<Point> path = graph.getClosestDot(point, potentialDirs,
+		List<Point> path = search.getClosestDot(point, potentialDirs,
 				ignoreList, Integer.MAX_VALUE);
 		return getDirFromPath(point, path);
 	}
@@ -279,7 +280,7 @@ public class PacPlayer implements Player {
 		 * System.out.println("Threshold Tiles " + THRESHOLD_TILES);
 		 * THRESHOLD_PIXELS = THRESHOLD_TILES*16;
 		 */
-		this.graph = new MazeGraph(maze);
+		this.search = new MazeSearch(MazeGraph.forMaze(maze), maze);
 	}
 
 	/**